@@ -0,0 +1,47 @@
+package org.computronium.digitsequences;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A Flight Recorder event covering a single arithmetic operation on digit sequences.  Costs next
+ * to nothing unless a recording with this event enabled is running.
+ */
+@Name("org.computronium.digitsequences.Arithmetic")
+@Label("Digit Sequence Arithmetic")
+@Category("Digit Sequences")
+class ArithmeticEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Algorithm")
+    String algorithm;
+
+    @Label("Left Operand Size")
+    int leftSize;
+
+    @Label("Right Operand Size")
+    int rightSize;
+
+    @Label("Result Size")
+    int resultSize;
+
+    @Label("Comparison Undecided")
+    boolean cantTell;
+
+    ArithmeticEvent(String operation) {
+        this.operation = operation;
+    }
+
+    void complete(DigitSequence left, DigitSequence right, DigitSequence result) {
+        if (shouldCommit()) {
+            leftSize = left.size();
+            rightSize = right.size();
+            resultSize = result.size();
+            commit();
+        }
+    }
+}
@@ -0,0 +1,205 @@
+package org.computronium.digitsequences;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Evaluates a file of expressions, one per line, such as "-...123 * 45 + 6".  Operands use the
+ * {@link DigitSequence#of(String)} syntax, must all be in the same base, and must be separated
+ * from the operators by whitespace.  "*" binds tighter than "+" and "-", which are applied left
+ * to right.  Results are written to standard output in input order, one line per input line,
+ * with "error: ..." for lines that can't be evaluated.  A throughput and latency summary goes to
+ * standard error.
+ */
+public class BatchEvaluator {
+
+    /**
+     * The most expressions allowed to be queued or running at once.  Once this many are
+     * outstanding, reading stops until the oldest one has been written out.
+     */
+    private static final int MAX_IN_FLIGHT = 1024;
+
+    private static class Result {
+        final String output;
+        final long nanos;
+
+        Result(String output, long nanos) {
+            this.output = output;
+            this.nanos = nanos;
+        }
+    }
+
+    /**
+     * Counts latencies in power-of-two microsecond buckets, so that memory use doesn't grow with
+     * the number of expressions.  Bucket i holds latencies below 2^i microseconds.
+     */
+    static class LatencyHistogram {
+        private final long[] buckets = new long[64];
+        private long count;
+        private long maxMicros;
+
+        void record(long nanos) {
+            long micros = nanos / 1000;
+            buckets[64 - Long.numberOfLeadingZeros(micros)]++;
+            count++;
+            maxMicros = Math.max(maxMicros, micros);
+        }
+
+        long count() {
+            return count;
+        }
+
+        long maxMicros() {
+            return maxMicros;
+        }
+
+        /**
+         * Returns an upper bound, in microseconds, on the given percentile of recorded latencies.
+         */
+        long percentileMicros(int percent) {
+            long rank = Math.max((long) Math.ceil(percent / 100.0 * count), 1);
+            long seen = 0;
+            for (int i = 0; i < buckets.length; i++) {
+                seen += buckets[i];
+                if (seen >= rank) {
+                    return Math.min((1L << i) - 1, maxMicros);
+                }
+            }
+            return maxMicros;
+        }
+    }
+
+    public static void main(String[] args) throws IOException, InterruptedException {
+        InputStream in = args.length > 0 ? new FileInputStream(args[0]) : System.in;
+        BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8));
+        Writer writer = new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8));
+        ExecutorService executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors());
+
+        LatencyHistogram latencies = new LatencyHistogram();
+        Deque<Future<Result>> inFlight = new ArrayDeque<>();
+        long start = System.nanoTime();
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (inFlight.size() >= MAX_IN_FLIGHT) {
+                    write(inFlight.removeFirst(), writer, latencies);
+                }
+                final String expression = line;
+                inFlight.addLast(executor.submit(() -> evaluateTimed(expression)));
+            }
+            while (!inFlight.isEmpty()) {
+                write(inFlight.removeFirst(), writer, latencies);
+            }
+        } finally {
+            // Even if the batch is cut short, keep what was written and say how far it got.
+            executor.shutdownNow();
+            reader.close();
+            writer.flush();
+            report(latencies, System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Evaluates a single expression.
+     *
+     * @throws IllegalArgumentException if the expression is empty or malformed, or mixes bases
+     */
+    static DigitSequence evaluate(String expression) {
+        String trimmed = expression.trim();
+        if (trimmed.isEmpty()) {
+            throw new IllegalArgumentException("Empty expression");
+        }
+        String[] tokens = trimmed.split("\\s+");
+        if (tokens.length % 2 == 0) {
+            throw new IllegalArgumentException("Malformed expression: " + expression);
+        }
+
+        // Fold each run of products into a term, then add or subtract the terms.
+        DigitSequence sum = null;
+        String pendingOperator = "+";
+        DigitSequence term = operand(tokens[0]);
+        for (int i = 1; i < tokens.length; i += 2) {
+            String operator = tokens[i];
+            DigitSequence operand = operand(tokens[i + 1]);
+            checkBase(term, operand);
+            switch (operator) {
+                case "*":
+                    term = term.multiply(operand);
+                    break;
+                case "+":
+                case "-":
+                    sum = combine(sum, pendingOperator, term);
+                    pendingOperator = operator;
+                    term = operand;
+                    break;
+                default:
+                    throw new IllegalArgumentException("Unknown operator: " + operator);
+            }
+        }
+        return combine(sum, pendingOperator, term);
+    }
+
+    private static DigitSequence combine(DigitSequence sum, String operator, DigitSequence term) {
+        if (sum == null) {
+            return term;
+        }
+        return operator.equals("+") ? sum.add(term) : sum.subtract(term);
+    }
+
+    private static DigitSequence operand(String token) {
+        if (!DigitSequence.FORMAT.matcher(token).matches()) {
+            throw new IllegalArgumentException("Malformed operand: " + token);
+        }
+        return DigitSequence.of(token);
+    }
+
+    private static void checkBase(DigitSequence a, DigitSequence b) {
+        if (a.getBase() != b.getBase()) {
+            throw new IllegalArgumentException("Mixed bases: " + a.getBase() + " and " + b.getBase());
+        }
+    }
+
+    private static Result evaluateTimed(String expression) {
+        long start = System.nanoTime();
+        String output;
+        try {
+            output = evaluate(expression).toString();
+        } catch (IllegalArgumentException e) {
+            output = "error: " + e.getMessage();
+        } catch (Throwable t) {
+            // Anything else is a bug in the arithmetic, but it shouldn't cost the rest of the batch.
+            output = "error: " + t;
+        }
+        return new Result(output, System.nanoTime() - start);
+    }
+
+    private static void write(Future<Result> future, Writer writer, LatencyHistogram latencies)
+            throws IOException, InterruptedException {
+        Result result;
+        try {
+            result = future.get();
+        } catch (ExecutionException e) {
+            throw new IllegalStateException(e.getCause());
+        }
+        writer.write(result.output);
+        writer.write('\n');
+        latencies.record(result.nanos);
+    }
+
+    private static void report(LatencyHistogram latencies, long elapsedNanos) {
+        double seconds = elapsedNanos / 1e9;
+        System.err.printf("%d expressions in %.3fs (%.0f/s)%n",
+                latencies.count(), seconds, latencies.count() / seconds);
+        if (latencies.count() > 0) {
+            System.err.printf("latency p50<=%dus p90<=%dus p99<=%dus max=%dus%n",
+                    latencies.percentileMicros(50), latencies.percentileMicros(90),
+                    latencies.percentileMicros(99), latencies.maxMicros());
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package org.computronium.digitsequences;
+
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A Flight Recorder event covering parsing a digit sequence from a string or formatting one as a
+ * string.
+ */
+@Name("org.computronium.digitsequences.Conversion")
+@Label("Digit Sequence Conversion")
+@Category("Digit Sequences")
+class ConversionEvent extends Event {
+
+    @Label("Operation")
+    String operation;
+
+    @Label("Characters")
+    int characters;
+
+    @Label("Digits")
+    int digits;
+
+    ConversionEvent(String operation) {
+        this.operation = operation;
+    }
+
+    void complete(String text, DigitSequence value) {
+        if (shouldCommit()) {
+            characters = text.length();
+            digits = value.size();
+            commit();
+        }
+    }
+}
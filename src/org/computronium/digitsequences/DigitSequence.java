@@ -1,5 +1,7 @@
 package org.computronium.digitsequences;
 
+import org.computronium.digitsequences.DigitSequenceMetrics.Operation;
+
 import java.util.Arrays;
 import java.util.regex.Pattern;
 
@@ -9,7 +11,7 @@ import java.util.regex.Pattern;
 public class DigitSequence {
 
     private static final short UNKNOWN = -1;
-    private static final Pattern FORMAT = Pattern.compile("(\\-)?" + PowerSeries.FORMAT);
+    static final Pattern FORMAT = Pattern.compile("(\\-)?" + PowerSeries.FORMAT);
 
     public static final DigitSequence ZERO = DigitSequence.of("0");
     public static final DigitSequence ONE = DigitSequence.of("1");
@@ -17,17 +19,40 @@ public class DigitSequence {
     private final boolean negative;
     private final PowerSeries series;
 
+    /**
+     * The operands this was computed from, as the caller passed them, if it is an infinite result
+     * of arithmetic.  Null otherwise.  Kept so that {@link #extendTo} can check their signs.
+     */
+    private final DigitSequence left;
+    private final DigitSequence right;
+
+    public DigitSequence(boolean negative, int base, boolean finite, short[] digits) {
+        this(negative, new PowerSeries.Builder().withBase(base).withFinite(finite).withDigits(digits).build());
+    }
+
     public DigitSequence(boolean negative, int base, boolean finite, Short[] digits) {
-        this(negative, new PowerSeries(base, finite, digits));
+        this(negative, new PowerSeries.Builder().withBase(base).withFinite(finite)
+                .withDigits(Arrays.asList(digits)).build());
     }
 
     public DigitSequence(boolean negative, PowerSeries series) {
+        this(negative, series, null, null);
+    }
+
+    private DigitSequence(boolean negative, PowerSeries series, DigitSequence left, DigitSequence right) {
         this.negative = negative;
         this.series = series;
+        this.left = left;
+        this.right = right;
     }
 
     public static DigitSequence of(String s) {
-        return new Builder(s).build();
+        Measurement measurement = DigitSequenceMetrics.enabled ? Measurement.conversion(Operation.PARSE) : null;
+        DigitSequence result = new Builder(s).build();
+        if (measurement != null) {
+            measurement.complete(s, result);
+        }
+        return result;
     }
 
     public short digitAt(int index) {
@@ -48,6 +73,75 @@ public class DigitSequence {
         return series.isFinite();
     }
 
+    public int getBase() {
+        return series.getBase();
+    }
+
+    /**
+     * Returns this infinite sequence with the known digits of {@code longer}, for when more of
+     * its low digits have been worked out.  The result is the same number with more known digits,
+     * so values computed from this one can be brought up to date with
+     * {@link #extendTo(DigitSequence, DigitSequence)}.
+     *
+     * @throws IllegalArgumentException if this is finite, or {@code longer} disagrees with it
+     */
+    public DigitSequence withKnownDigits(DigitSequence longer) {
+        if (negative != longer.negative) {
+            throw new IllegalArgumentException(longer + " doesn't extend " + this);
+        }
+        return new DigitSequence(negative, series.withKnownDigits(longer.series));
+    }
+
+    /**
+     * Extends this result of {@link #add}, {@link #subtract} or {@link #multiply} using operands
+     * that have gained more known digits since (see {@link #withKnownDigits}).  Carries on from
+     * the last digit already known instead of starting again.  Going from n known digits to n+k
+     * copies the n digits once, so it costs O(n+k) for a sum or difference.  Each new column of a
+     * product costs as much as its index, so a product costs O(k*(n+k)) rather than the
+     * O((n+k)^2) of starting again.
+     *
+     * @throws IllegalStateException if this is infinite but not a result of arithmetic
+     * @throws IllegalArgumentException if the operands aren't extensions of the original ones
+     */
+    public DigitSequence extendTo(DigitSequence left, DigitSequence right) {
+        return extendTo(Integer.MAX_VALUE, left, right);
+    }
+
+    /**
+     * Like {@link #extendTo(DigitSequence, DigitSequence)}, but stops at {@code precision} digits.
+     */
+    public DigitSequence extendTo(int precision, DigitSequence left, DigitSequence right) {
+        if (this.left == null) {
+            // Not derived from anything, so let the series say whether that's fine.
+            PowerSeries extended = series.extendTo(precision, left.series, right.series);
+            return extended == series ? this : new DigitSequence(negative, extended);
+        }
+        if (!(left.extendsSequence(this.left) && right.extendsSequence(this.right))) {
+            if (!(right.extendsSequence(this.left) && left.extendsSequence(this.right))) {
+                throw new IllegalArgumentException("Operands don't extend the ones this was computed from");
+            }
+            DigitSequence swap = left;
+            left = right;
+            right = swap;
+        }
+        PowerSeries extended = series.extendTo(precision, left.series, right.series);
+        return new DigitSequence(negative, extended, left, right);
+    }
+
+    /**
+     * Whether this is {@code original}, or the same number with more known digits.
+     */
+    private boolean extendsSequence(DigitSequence original) {
+        return negative == original.negative && series.extendsSeries(original.series);
+    }
+
+    /**
+     * Remembers the operands of an infinite result so that it can be extended later.
+     */
+    private DigitSequence derivedFrom(DigitSequence left, DigitSequence right) {
+        return isFinite() ? this : new DigitSequence(negative, series, left, right);
+    }
+
     public DigitSequence negate() {
         if (this.equals(ZERO)) {
             return ZERO;
@@ -57,10 +151,30 @@ public class DigitSequence {
 
     public DigitSequence subtract(DigitSequence subtrahend) {
 
-        return add(subtrahend.negate());
+        return add(subtrahend, subtrahend.negate(), Operation.SUBTRACT);
     }
 
     public DigitSequence add(DigitSequence addend) {
+        return add(addend, addend, Operation.ADD);
+    }
+
+    /**
+     * Adds {@code addend}, recording the operation as {@code operation} against the operand the
+     * caller actually passed in.
+     */
+    private DigitSequence add(DigitSequence operand, DigitSequence addend, Operation operation) {
+        Measurement measurement = DigitSequenceMetrics.enabled ? Measurement.arithmetic(operation) : null;
+        DigitSequence sum = doAdd(addend, measurement).derivedFrom(this, operand);
+        if (measurement != null) {
+            measurement.complete(this, operand, sum);
+        }
+        return sum;
+    }
+
+    /**
+     * Does the addition, noting which way it went in {@code measurement} if there is one.
+     */
+    private DigitSequence doAdd(DigitSequence addend, Measurement measurement) {
 
         // TODO  assert bases match, everywhere.
 
@@ -69,6 +183,9 @@ public class DigitSequence {
 
         if (this.negative == addend.negative) {
             // They are the same sign, so we can just add the digits and keep the sign.
+            if (measurement != null) {
+                measurement.algorithm = "add magnitudes";
+            }
             return new Builder()
                     .withNegative(negative)
                     .withSeries(series.add(addend.series)).build();
@@ -80,6 +197,9 @@ public class DigitSequence {
         PowerSeries.ComparisonResult comparison = series.compareTo(addend.series);
         if (comparison == PowerSeries.ComparisonResult.EQUAL) {
             // They're equal so the difference is just zero.
+            if (measurement != null) {
+                measurement.algorithm = "cancel";
+            }
             return ZERO;
         }
 
@@ -93,33 +213,55 @@ public class DigitSequence {
             smaller = this;
         } else {
             // Can't tell.  What to do?  TODO
+            if (measurement != null) {
+                measurement.cantTell = true;
+            }
             larger = this;
             smaller = addend;
         }
 
+        if (measurement != null) {
+            measurement.algorithm = "subtract magnitudes";
+        }
         return new Builder().withNegative(larger.negative).withSeries(larger.series.subtract(smaller.series)).build();
     }
 
     public DigitSequence multiply(DigitSequence multiplier) {
 
+        Measurement measurement = DigitSequenceMetrics.enabled ? Measurement.arithmetic(Operation.MULTIPLY) : null;
+        DigitSequence product;
+        String algorithm;
         if (this.equals(ZERO) || multiplier.equals(ZERO)) {
-            return ZERO;
+            algorithm = "zero";
+            product = ZERO;
+        } else {
+            algorithm = "long multiplication";
+            product = new Builder()
+                    .withNegative(negative ^ multiplier.negative)
+                    .withSeries(series.multiply(multiplier.series))
+                    .build()
+                    .derivedFrom(this, multiplier);
         }
-
-        return new Builder()
-                .withNegative(negative ^ multiplier.negative)
-                .withSeries(series.multiply(multiplier.series))
-                .build();
+        if (measurement != null) {
+            measurement.algorithm = algorithm;
+            measurement.complete(this, multiplier, product);
+        }
+        return product;
     }
 
     @Override
     public String toString() {
+        Measurement measurement = DigitSequenceMetrics.enabled ? Measurement.conversion(Operation.FORMAT) : null;
         StringBuilder sb = new StringBuilder();
         if (negative) {
             sb.append("-");
         }
         sb.append(series);
-        return sb.toString();
+        String result = sb.toString();
+        if (measurement != null) {
+            measurement.complete(result, this);
+        }
+        return result;
     }
 
     @Override
@@ -142,7 +284,13 @@ public class DigitSequence {
 
     public static class Builder {
         private boolean negative;
-        private final PowerSeries.Builder series;
+        private PowerSeries.Builder series;
+
+        /**
+         * A finished series to use as is, so that results of arithmetic don't get copied again.
+         * Any change to the series turns it back into a builder first.
+         */
+        private PowerSeries built;
 
         public Builder() {
             series = new PowerSeries.Builder();
@@ -164,11 +312,11 @@ public class DigitSequence {
 
         public Builder(DigitSequence digitSequence) {
             negative = digitSequence.negative;
-            series = new PowerSeries.Builder(digitSequence.series);
+            built = digitSequence.series;
         }
 
         public Builder withFinite(boolean finite) {
-            series.withFinite(finite);
+            series().withFinite(finite);
             return this;
         }
 
@@ -178,22 +326,31 @@ public class DigitSequence {
         }
 
         public Builder withBase(int base) {
-            series.withBase(base);
+            series().withBase(base);
             return this;
         }
 
         public Builder withSeries(PowerSeries series) {
-            this.series.withBase(series.getBase()).withDigits(Arrays.asList(series.getDigits())).withFinite(series.isFinite());
+            this.built = series;
+            this.series = null;
             return this;
         }
 
         public Builder addDigit(short digit) {
-            series.addDigit(digit);
+            series().addDigit(digit);
             return this;
         }
 
+        private PowerSeries.Builder series() {
+            if (built != null) {
+                series = new PowerSeries.Builder(built);
+                built = null;
+            }
+            return series;
+        }
+
         public DigitSequence build() {
-            return new DigitSequence(negative, series.build());
+            return new DigitSequence(negative, built != null ? built : series.build());
         }
 
         public Builder negate() {
@@ -0,0 +1,211 @@
+package org.computronium.digitsequences;
+
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running totals of digit sequence operations: how many there were, the time spent on them, the
+ * digits they produced and the sizes of their operands.  Nothing is recorded, and neither Flight
+ * Recorder nor JMX is touched, until this is enabled, either by starting the JVM with
+ * {@code -Dorg.computronium.digitsequences.instrumentation=true} or by calling
+ * {@link #setEnabled(boolean)}.  Enabling it also registers it with the platform MBean server
+ * under {@value #OBJECT_NAME}.
+ */
+public class DigitSequenceMetrics implements DigitSequenceMetricsMBean {
+
+    public static final String OBJECT_NAME = "org.computronium.digitsequences:type=DigitSequenceMetrics";
+
+    public static enum Operation {
+        ADD,
+        SUBTRACT,
+        MULTIPLY,
+        PARSE,
+        FORMAT
+    }
+
+    private static final DigitSequenceMetrics INSTANCE = new DigitSequenceMetrics();
+
+    /**
+     * Checked before every operation, so that nothing else is done while instrumentation is off.
+     */
+    static volatile boolean enabled;
+
+    static {
+        if (Boolean.getBoolean("org.computronium.digitsequences.instrumentation")) {
+            INSTANCE.setEnabled(true);
+        }
+    }
+
+    private final LongAdder[] counts = newAdders(Operation.values().length);
+    private final LongAdder[] nanos = newAdders(Operation.values().length);
+    private final LongAdder cantTell = new LongAdder();
+    private final LongAdder digitsProduced = new LongAdder();
+    private final LongAdder[] operandSizes = newAdders(32);
+
+    private DigitSequenceMetrics() {
+    }
+
+    public static DigitSequenceMetrics getInstance() {
+        return INSTANCE;
+    }
+
+    private static LongAdder[] newAdders(int n) {
+        LongAdder[] adders = new LongAdder[n];
+        for (int i = 0; i < n; i++) {
+            adders[i] = new LongAdder();
+        }
+        return adders;
+    }
+
+    void recordArithmetic(Operation operation, long elapsedNanos, int leftSize, int rightSize, int resultSize,
+                          boolean undecided) {
+        record(operation, elapsedNanos);
+        operandSizes[bucket(leftSize)].increment();
+        operandSizes[bucket(rightSize)].increment();
+        digitsProduced.add(resultSize);
+        if (undecided) {
+            cantTell.increment();
+        }
+    }
+
+    void recordConversion(Operation operation, long elapsedNanos, int digits) {
+        record(operation, elapsedNanos);
+        if (operation == Operation.PARSE) {
+            digitsProduced.add(digits);
+        }
+    }
+
+    private void record(Operation operation, long elapsedNanos) {
+        counts[operation.ordinal()].increment();
+        nanos[operation.ordinal()].add(elapsedNanos);
+    }
+
+    private static int bucket(int size) {
+        return 32 - Integer.numberOfLeadingZeros(size);
+    }
+
+    public long getCount(Operation operation) {
+        return counts[operation.ordinal()].sum();
+    }
+
+    public long getNanos(Operation operation) {
+        return nanos[operation.ordinal()].sum();
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void setEnabled(boolean enabled) {
+        if (enabled) {
+            Registration.register();
+        }
+        DigitSequenceMetrics.enabled = enabled;
+    }
+
+    /**
+     * Kept in its own class so that none of JMX is loaded until metrics are first enabled.
+     */
+    private static class Registration {
+        private static boolean registered;
+
+        static synchronized void register() {
+            if (registered) {
+                return;
+            }
+            try {
+                ManagementFactory.getPlatformMBeanServer().registerMBean(INSTANCE, new ObjectName(OBJECT_NAME));
+            } catch (InstanceAlreadyExistsException e) {
+                // Someone else got there first -- nothing more to do.
+            } catch (JMException e) {
+                throw new IllegalStateException("Couldn't register " + OBJECT_NAME, e);
+            }
+            registered = true;
+        }
+    }
+
+    @Override
+    public long getAddCount() {
+        return getCount(Operation.ADD);
+    }
+
+    @Override
+    public long getSubtractCount() {
+        return getCount(Operation.SUBTRACT);
+    }
+
+    @Override
+    public long getMultiplyCount() {
+        return getCount(Operation.MULTIPLY);
+    }
+
+    @Override
+    public long getParseCount() {
+        return getCount(Operation.PARSE);
+    }
+
+    @Override
+    public long getFormatCount() {
+        return getCount(Operation.FORMAT);
+    }
+
+    @Override
+    public long getAddNanos() {
+        return getNanos(Operation.ADD);
+    }
+
+    @Override
+    public long getSubtractNanos() {
+        return getNanos(Operation.SUBTRACT);
+    }
+
+    @Override
+    public long getMultiplyNanos() {
+        return getNanos(Operation.MULTIPLY);
+    }
+
+    @Override
+    public long getParseNanos() {
+        return getNanos(Operation.PARSE);
+    }
+
+    @Override
+    public long getFormatNanos() {
+        return getNanos(Operation.FORMAT);
+    }
+
+    @Override
+    public long getCantTellCount() {
+        return cantTell.sum();
+    }
+
+    @Override
+    public long getDigitsProduced() {
+        return digitsProduced.sum();
+    }
+
+    @Override
+    public long[] getOperandSizeHistogram() {
+        long[] histogram = new long[operandSizes.length];
+        for (int i = 0; i < histogram.length; i++) {
+            histogram[i] = operandSizes[i].sum();
+        }
+        return histogram;
+    }
+
+    @Override
+    public void reset() {
+        for (LongAdder[] adders : new LongAdder[][] {counts, nanos, operandSizes}) {
+            for (LongAdder adder : adders) {
+                adder.reset();
+            }
+        }
+        cantTell.reset();
+        digitsProduced.reset();
+    }
+}
@@ -0,0 +1,49 @@
+package org.computronium.digitsequences;
+
+/**
+ * The JMX view of {@link DigitSequenceMetrics}.
+ */
+public interface DigitSequenceMetricsMBean {
+
+    boolean isEnabled();
+
+    void setEnabled(boolean enabled);
+
+    long getAddCount();
+
+    long getSubtractCount();
+
+    long getMultiplyCount();
+
+    long getParseCount();
+
+    long getFormatCount();
+
+    long getAddNanos();
+
+    long getSubtractNanos();
+
+    long getMultiplyNanos();
+
+    long getParseNanos();
+
+    long getFormatNanos();
+
+    /**
+     * How many additions of two infinite numbers of opposite sign couldn't tell which was larger.
+     */
+    long getCantTellCount();
+
+    /**
+     * The total number of digits in the results of arithmetic and parsing.
+     */
+    long getDigitsProduced();
+
+    /**
+     * Counts of operand sizes, where entry i counts operands of fewer than 2^i digits that
+     * aren't counted in an earlier entry.
+     */
+    long[] getOperandSizeHistogram();
+
+    void reset();
+}
@@ -0,0 +1,55 @@
+package org.computronium.digitsequences;
+
+import org.computronium.digitsequences.DigitSequenceMetrics.Operation;
+
+/**
+ * A single operation being instrumented.  It is timed for {@link DigitSequenceMetrics} and
+ * reported to Flight Recorder.  These are only created while instrumentation is enabled, so the
+ * event classes aren't even loaded otherwise.
+ */
+final class Measurement {
+
+    private final Operation operation;
+    private final long start;
+    private final ArithmeticEvent arithmeticEvent;
+    private final ConversionEvent conversionEvent;
+
+    String algorithm;
+    boolean cantTell;
+
+    private Measurement(Operation operation, ArithmeticEvent arithmeticEvent, ConversionEvent conversionEvent) {
+        this.operation = operation;
+        this.arithmeticEvent = arithmeticEvent;
+        this.conversionEvent = conversionEvent;
+        this.start = System.nanoTime();
+    }
+
+    static Measurement arithmetic(Operation operation) {
+        ArithmeticEvent event = new ArithmeticEvent(name(operation));
+        event.begin();
+        return new Measurement(operation, event, null);
+    }
+
+    static Measurement conversion(Operation operation) {
+        ConversionEvent event = new ConversionEvent(name(operation));
+        event.begin();
+        return new Measurement(operation, null, event);
+    }
+
+    private static String name(Operation operation) {
+        return operation.name().toLowerCase();
+    }
+
+    void complete(DigitSequence left, DigitSequence right, DigitSequence result) {
+        DigitSequenceMetrics.getInstance().recordArithmetic(operation, System.nanoTime() - start,
+                left.size(), right.size(), result.size(), cantTell);
+        arithmeticEvent.algorithm = algorithm;
+        arithmeticEvent.cantTell = cantTell;
+        arithmeticEvent.complete(left, right, result);
+    }
+
+    void complete(String text, DigitSequence value) {
+        DigitSequenceMetrics.getInstance().recordConversion(operation, System.nanoTime() - start, value.size());
+        conversionEvent.complete(text, value);
+    }
+}
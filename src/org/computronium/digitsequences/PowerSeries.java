@@ -17,9 +17,10 @@ class PowerSeries {
     private final int base;
 
     /**
-     * The digits that make up this power series, least significant first.
+     * The digits that make up this power series, least significant first.  Kept as primitives
+     * so that very long sequences don't cost a reference per digit.
      */
-    private final Short[] digits;
+    private final short[] digits;
 
     /**
      * The set of unique tokens that represent a particular number's infinite sequence of otherwise
@@ -31,6 +32,12 @@ class PowerSeries {
      */
     private final Map<String, Integer> tokens;
 
+    /**
+     * How this series was computed, if it is an infinite result of arithmetic, so that it can be
+     * extended once its operands have more known digits.  Null otherwise.
+     */
+    private final Derivation derivation;
+
     static enum ComparisonResult {
         LESS_THAN,
         EQUAL,
@@ -42,10 +49,40 @@ class PowerSeries {
         return UUID.randomUUID().toString();
     }
 
-    PowerSeries(int base, Map<String, Integer> tokens, Short[] digits) {
+    private static enum Operation {
+        ADD,
+        SUBTRACT,
+        MULTIPLY
+    }
+
+    /**
+     * The operands of an arithmetic result and the carry (or borrow) left over after its last
+     * digit.  That's all that's needed to pick the computation up again at the next digit.  Note
+     * that this keeps the operands reachable for as long as the result is.
+     */
+    private static class Derivation {
+        final Operation operation;
+        final PowerSeries left;
+        final PowerSeries right;
+        final int carry;
+
+        Derivation(Operation operation, PowerSeries left, PowerSeries right, int carry) {
+            this.operation = operation;
+            this.left = left;
+            this.right = right;
+            this.carry = carry;
+        }
+    }
+
+    PowerSeries(int base, Map<String, Integer> tokens, short[] digits) {
+        this(base, tokens, digits, null);
+    }
+
+    private PowerSeries(int base, Map<String, Integer> tokens, short[] digits, Derivation derivation) {
         this.base = base;
         this.tokens = tokens;
         this.digits = digits;
+        this.derivation = derivation;
         // TODO trim leading zeroes
     }
 
@@ -104,7 +141,7 @@ class PowerSeries {
         return tokens.isEmpty();
     }
 
-    public Short[] getDigits() {
+    public short[] getDigits() {
         return digits;
     }
 
@@ -114,19 +151,26 @@ class PowerSeries {
 
     public PowerSeries add(PowerSeries addend) {
 
-        Builder sum = new Builder(this).addToken(finite && addend.isFinite());
-        int carry = 0;
-        int index = 0;
-        while (canKeepAdding(carry, this, addend, index)) {
-            short thisDigit = this.digitAt(index);
+        Builder sum = new Builder().withBase(base).withFinite(isFinite() && addend.isFinite());
+        return add(this, addend, sum, 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Adds digits to {@code sum}, starting at the first digit it doesn't have yet, until either
+     * operand runs out of known digits or {@code precision} digits are reached.
+     */
+    private static PowerSeries add(PowerSeries augend, PowerSeries addend, Builder sum, int carry, int precision) {
+        int index = sum.length;
+        while (index < precision && canKeepAdding(carry, augend, addend, index)) {
+            short augendDigit = augend.digitAt(index);
             short addendDigit = addend.digitAt(index);
-            int digitSum = carry + thisDigit + addendDigit;
-            sum.addDigit((short) (digitSum % 10));
-            carry = digitSum / 10;
+            int digitSum = carry + augendDigit + addendDigit;
+            sum.addDigit((short) (digitSum % augend.base));
+            carry = digitSum / augend.base;
 
             index++;
         }
-        return sum.build();
+        return sum.build(new Derivation(Operation.ADD, augend, addend, carry));
     }
 
     private static boolean canKeepAdding(int carry, PowerSeries augend, PowerSeries addend, int index) {
@@ -139,23 +183,27 @@ class PowerSeries {
 
     public PowerSeries subtract(PowerSeries subtrahend) {
 
-        Builder difference = new Builder().withFinite(finite && subtrahend.isFinite());
-        short borrowed = 0;
-        int index = 0;
-        while (canKeepSubtracting(this, subtrahend, index)) {
-            int a = this.digitAt(index) - borrowed;
+        Builder difference = new Builder().withBase(base).withFinite(isFinite() && subtrahend.isFinite());
+        return subtract(this, subtrahend, difference, 0, Integer.MAX_VALUE);
+    }
+
+    private static PowerSeries subtract(PowerSeries minuend, PowerSeries subtrahend, Builder difference,
+                                         int borrowed, int precision) {
+        int index = difference.length;
+        while (index < precision && canKeepSubtracting(minuend, subtrahend, index)) {
+            int a = minuend.digitAt(index) - borrowed;
             int b = subtrahend.digitAt(index);
             if (b > a) {
                 // Need to borrow.
                 borrowed = 1;
-                a += 10;
+                a += minuend.base;
             } else {
                 borrowed = 0;
             }
             difference.addDigit((short) (a - b));
             index++;
         }
-        return difference.build();
+        return difference.build(new Derivation(Operation.SUBTRACT, minuend, subtrahend, borrowed));
     }
     
     private static boolean canKeepSubtracting(PowerSeries minuend, PowerSeries subtrahend, int index) {
@@ -168,24 +216,113 @@ class PowerSeries {
 
 
     public PowerSeries multiply(PowerSeries multiplier) {
-        Builder product = new Builder().withFinite(isFinite() && multiplier.isFinite());
-        int carry = 0;
-        int index = 0;
-        while (canKeepMultiplying(carry, this, multiplier, index)) {
+        Builder product = new Builder().withBase(base).withFinite(isFinite() && multiplier.isFinite());
+        return multiply(this, multiplier, product, 0, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Works out the product one column at a time.  Every digit a column needs is known by the
+     * time it is reached, so the carry is the only state that passes from one column to the next.
+     */
+    private static PowerSeries multiply(PowerSeries multiplicand, PowerSeries multiplier, Builder product,
+                                        int carry, int precision) {
+        int index = product.length;
+        while (index < precision && canKeepMultiplying(carry, multiplicand, multiplier, index)) {
             int columnSum = carry;
             for (int i = 0; i <= index; i++) {
-                columnSum += digitAt(i) * multiplier.digitAt(index - i);
+                columnSum += multiplicand.digitAt(i) * multiplier.digitAt(index - i);
             }
-            product.digits.add((short) (columnSum % 10));
-            carry = columnSum / 10;
+            product.addDigit((short) (columnSum % multiplicand.base));
+            carry = columnSum / multiplicand.base;
             index++;
         }
-        return product.build();
+        return product.build(new Derivation(Operation.MULTIPLY, multiplicand, multiplier, carry));
+    }
+
+    /**
+     * Continues the computation that produced this series against operands that have gained more
+     * known low digits since, up to {@code precision} digits.  Only the new digits are worked out;
+     * the ones already known are kept as they are.
+     *
+     * @throws IllegalStateException if this series isn't an infinite result of arithmetic
+     * @throws IllegalArgumentException if the operands aren't extensions of the original ones
+     */
+    PowerSeries extendTo(int precision, PowerSeries a, PowerSeries b) {
+        if (derivation == null) {
+            if (isFinite()) {
+                // Nothing more to know.
+                return this;
+            }
+            throw new IllegalStateException("Only results of arithmetic can be extended");
+        }
+
+        PowerSeries left, right;
+        if (a.extendsSeries(derivation.left) && b.extendsSeries(derivation.right)) {
+            left = a;
+            right = b;
+        } else if (b.extendsSeries(derivation.left) && a.extendsSeries(derivation.right)) {
+            left = b;
+            right = a;
+        } else {
+            throw new IllegalArgumentException("Operands don't extend the ones this was computed from");
+        }
+
+        Builder builder = new Builder(this);
+        switch (derivation.operation) {
+            case ADD:
+                return add(left, right, builder, derivation.carry, precision);
+            case SUBTRACT:
+                return subtract(left, right, builder, derivation.carry, precision);
+            default:
+                return multiply(left, right, builder, derivation.carry, precision);
+        }
+    }
+
+    /**
+     * Returns this series with the known digits of {@code longer}, which must agree with every
+     * digit known so far.  The result keeps this series' tokens, so it counts as the same number.
+     *
+     * @throws IllegalArgumentException if {@code longer} doesn't extend this series
+     */
+    PowerSeries withKnownDigits(PowerSeries longer) {
+        if (isFinite() || longer.base != base || !longer.hasPrefix(digits)) {
+            throw new IllegalArgumentException(longer + " doesn't extend " + this);
+        }
+        return new PowerSeries(base, tokens, longer.digits);
+    }
+
+    /**
+     * Whether this series is {@code original}, or the same number with more known digits.  A
+     * finite series is already complete, so it only matches if all its digits are the same.
+     */
+    boolean extendsSeries(PowerSeries original) {
+        if (this == original) {
+            return true;
+        }
+        if (base != original.base || !tokens.equals(original.tokens)) {
+            return false;
+        }
+        return isFinite() ? Arrays.equals(digits, original.digits) : hasPrefix(original.digits);
+    }
+
+    private boolean hasPrefix(short[] prefix) {
+        if (digits == prefix) {
+            return true;
+        }
+        if (digits.length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (digits[i] != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
     }
 
     private static boolean canKeepMultiplying(int carry, PowerSeries multiplicand, PowerSeries multiplier, int index) {
         if (multiplicand.isFinite() && multiplier.isFinite()) {
-            return carry > 0 || index < multiplicand.size() || index < multiplier.size();
+            return carry > 0 || index < multiplicand.size() + multiplier.size() - 1;
         } else {
             return multiplicand.hasKnownDigitAt(index) && multiplier.hasKnownDigitAt(index);
         }
@@ -220,7 +357,7 @@ class PowerSeries {
     @Override
     public String toString() {
         StringBuilder sb = new StringBuilder();
-        for (Short digit : digits) {
+        for (short digit : digits) {
             sb.insert(0, digit);
         }
         if (!isFinite()) {
@@ -235,7 +372,8 @@ class PowerSeries {
     public static class Builder {
         private Map<String, Integer> tokens = new HashMap<>();
         private int base = 10;
-        private List<Short> digits = new ArrayList<>();
+        private short[] digits = new short[16];
+        private int length;
 
         public Builder() {
         }
@@ -246,13 +384,13 @@ class PowerSeries {
                 tokens.put(generateToken(), 1);
             }
             if (n == 0) {
-                digits.add((short) 0);
+                addDigit((short) 0);
             } else {
                 if (n < 0) {
                     n = -n;
                 }
                 while (n > 0) {
-                    digits.add((short) (n % 10));
+                    addDigit((short) (n % 10));
                     n = n / 10;
                 }
             }
@@ -261,7 +399,8 @@ class PowerSeries {
         public Builder(String s) {
 
             Matcher matcher = FORMAT.matcher(s);
-            assert matcher.matches();
+            boolean matches = matcher.matches();
+            assert matches;
 
             boolean infinite = matcher.group(1) != null;
             if (infinite) {
@@ -276,7 +415,7 @@ class PowerSeries {
                 }
             }
             for (int i = digitString.length() - 1; i >= 0; i--) {
-                digits.add((short) (digitString.charAt(i) - '0'));
+                addDigit((short) (digitString.charAt(i) - '0'));
             }
 
             this.base = matcher.group(3) == null ? 10 : Integer.valueOf(matcher.group(4));
@@ -285,11 +424,34 @@ class PowerSeries {
         public Builder(PowerSeries series) {
             this.tokens.putAll(series.tokens);
             this.base = series.base;
-            this.digits = Arrays.asList(series.digits);
+            withDigits(series.digits);
         }
 
         public Builder withDigits(List<Short> digits) {
-            this.digits = digits;
+            this.digits = new short[Math.max(digits.size(), 16)];
+            this.length = 0;
+            for (Short digit : digits) {
+                addDigit(digit);
+            }
+            return this;
+        }
+
+        public Builder withDigits(short[] digits) {
+            this.digits = Arrays.copyOf(digits, Math.max(digits.length, 16));
+            this.length = digits.length;
+            return this;
+        }
+
+        /**
+         * Makes the series finite, or gives it a fresh token if it is being made infinite and
+         * doesn't already have one.
+         */
+        public Builder withFinite(boolean finite) {
+            if (finite) {
+                tokens.clear();
+            } else if (tokens.isEmpty()) {
+                tokens.put(generateToken(), 1);
+            }
             return this;
         }
 
@@ -319,18 +481,30 @@ class PowerSeries {
         }
 
         public Builder addDigit(short digit) {
-            digits.add(digit);
+            if (length == digits.length) {
+                digits = Arrays.copyOf(digits, length * 2);
+            }
+            digits[length++] = digit;
             return this;
         }
 
         public PowerSeries build() {
+            return build(null);
+        }
+
+        /**
+         * Builds the series, remembering how it was computed if it is infinite.  Finite results
+         * are already complete, so they don't hold on to their operands.
+         */
+        private PowerSeries build(Derivation derivation) {
             if (tokens.isEmpty()) {
                 // Trim leading zeros.
-                while (digits.size() > 1 && digits.get(digits.size()-1) == 0) {
-                    digits.remove(digits.size()-1);
+                while (length > 1 && digits[length-1] == 0) {
+                    length--;
                 }
             }
-            return new PowerSeries(base, tokens, digits.toArray(new Short[0]));
+            return new PowerSeries(base, new HashMap<>(tokens), Arrays.copyOf(digits, length),
+                    tokens.isEmpty() ? null : derivation);
         }
     }
 }
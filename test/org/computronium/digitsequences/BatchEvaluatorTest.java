@@ -0,0 +1,86 @@
+package org.computronium.digitsequences;
+
+import junit.framework.Assert;
+import org.testng.annotations.Test;
+
+/**
+ * Tests {@link BatchEvaluator}.
+ */
+@Test
+public class BatchEvaluatorTest {
+
+    public void testOperators() {
+        evaluationTest("12 + 30", "42");
+        evaluationTest("12 - 30", "-18");
+        evaluationTest("12 * 30", "360");
+        evaluationTest("7", "7");
+        evaluationTest("  1 + 2  ", "3");
+        evaluationTest("10 - 3 - 2", "5");
+    }
+
+    public void testPrecedence() {
+        evaluationTest("1 + 2 * 3", "7");
+        evaluationTest("2 * 3 + 1", "7");
+        evaluationTest("2 * 3 - 4 * 5", "-14");
+        evaluationTest("10 - 2 * 3 * 1 + 1", "5");
+    }
+
+    public void testNegativeOperands() {
+        evaluationTest("5 - -3", "8");
+        evaluationTest("-5 + -3", "-8");
+        evaluationTest("-5 * -3", "15");
+    }
+
+    public void testInfiniteOperands() {
+        evaluationTest("...123 + 123", "...246");
+        evaluationTest("5 * ...111", "...555");
+        evaluationTest("0 - ...3", "-...3");
+    }
+
+    public void testBases() {
+        evaluationTest("12b7 + 3b7", "15b7");
+        evaluationTest("6b7 + 1b7", "10b7");
+        evaluationTest("66b7 + 1b7", "100b7");
+        evaluationTest("10b7 - 1b7", "6b7");
+        evaluationTest("3b7 * 3b7", "12b7");
+        evaluationTest("11b2 * 11b2", "1001b2");
+        evaluationTest("...6b7 + 1b7", "...0b7");
+        errorTest("12b7 + 3");
+        errorTest("12 * 3b7");
+    }
+
+    public void testMalformedLines() {
+        errorTest("");
+        errorTest("   ");
+        errorTest("1 +");
+        errorTest("1 + + 2");
+        errorTest("1 / 2");
+        errorTest("1+2");
+        errorTest("abc");
+        errorTest("..123 + 1");
+    }
+
+    private void evaluationTest(String expression, String result) {
+        Assert.assertEquals(expression, result, BatchEvaluator.evaluate(expression).toString());
+    }
+
+    private void errorTest(String expression) {
+        try {
+            BatchEvaluator.evaluate(expression);
+            Assert.fail("Expected error for \"" + expression + "\"");
+        } catch (IllegalArgumentException e) {
+            // Expected -- do nothing.
+        }
+    }
+
+    public void testLatencyHistogram() {
+        BatchEvaluator.LatencyHistogram histogram = new BatchEvaluator.LatencyHistogram();
+        for (int micros = 1; micros <= 100; micros++) {
+            histogram.record(micros * 1000L);
+        }
+        Assert.assertEquals(100, histogram.count());
+        Assert.assertEquals(100, histogram.maxMicros());
+        Assert.assertEquals(63, histogram.percentileMicros(50));
+        Assert.assertEquals(100, histogram.percentileMicros(99));
+    }
+}
@@ -1,8 +1,19 @@
 package org.computronium.digitsequences;
 
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import junit.framework.Assert;
 import org.testng.annotations.Test;
 
+import javax.management.ObjectName;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashSet;
+import java.util.Set;
+
 /**
  * Tests {@link DigitSequence}.
  */
@@ -185,6 +196,192 @@ public class DigitSequenceTest {
         Assert.assertEquals(DigitSequence.of(product), DigitSequence.of(mulitiplicand).multiply(DigitSequence.of(multiplier)));
     }
 
+    public void testInstrumentedArithmetic() {
+        // Same results as the plain tests, with the Flight Recorder events enabled.
+        DigitSequenceMetrics.getInstance().setEnabled(true);
+        try (Recording recording = new Recording()) {
+            recording.enable("org.computronium.digitsequences.Arithmetic");
+            recording.start();
+
+            Assert.assertEquals("246", DigitSequence.of("123").add(DigitSequence.of("123")).toString());
+            Assert.assertEquals("-1", DigitSequence.of("0").subtract(DigitSequence.of("1")).toString());
+            Assert.assertEquals("0", DigitSequence.of("10").subtract(DigitSequence.of("10")).toString());
+            Assert.assertEquals("-25", DigitSequence.of("-5").multiply(DigitSequence.of("5")).toString());
+            Assert.assertEquals("0", DigitSequence.of("7").multiply(DigitSequence.of("0")).toString());
+
+            // Two infinites of opposite sign can't be compared, so the first one is taken as larger.
+            Assert.assertEquals("...78", DigitSequence.of("...123").add(DigitSequence.of("-...45")).toString());
+            Assert.assertEquals("...78", DigitSequence.of("...123").subtract(DigitSequence.of("...45")).toString());
+        } finally {
+            DigitSequenceMetrics.getInstance().setEnabled(false);
+        }
+    }
+
+    public void testArithmeticEvents() throws IOException {
+        Path file = Files.createTempFile("digitsequences", ".jfr");
+        DigitSequenceMetrics.getInstance().setEnabled(true);
+        try (Recording recording = new Recording()) {
+            recording.enable("org.computronium.digitsequences.Arithmetic");
+            recording.enable("org.computronium.digitsequences.Conversion");
+            recording.start();
+
+            DigitSequence.of("12").add(DigitSequence.of("3"));
+            DigitSequence.of("12").subtract(DigitSequence.of("3"));
+            DigitSequence.of("12").multiply(DigitSequence.ZERO);
+            DigitSequence.of("...12").add(DigitSequence.of("-...3")).toString();
+
+            recording.stop();
+            recording.dump(file);
+
+            Set<String> seen = new HashSet<>();
+            for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+                String description = event.getString("operation");
+                if (event.hasField("algorithm")) {
+                    description += " " + event.getString("algorithm") + (event.getBoolean("cantTell") ? " cantTell" : "");
+                }
+                seen.add(description);
+            }
+            Assert.assertTrue(seen.toString(), seen.contains("add add magnitudes"));
+            Assert.assertTrue(seen.toString(), seen.contains("subtract subtract magnitudes"));
+            Assert.assertTrue(seen.toString(), seen.contains("multiply zero"));
+            Assert.assertTrue(seen.toString(), seen.contains("add subtract magnitudes cantTell"));
+            Assert.assertTrue(seen.toString(), seen.contains("parse"));
+            Assert.assertTrue(seen.toString(), seen.contains("format"));
+        } finally {
+            DigitSequenceMetrics.getInstance().setEnabled(false);
+            Files.delete(file);
+        }
+    }
+
+    public void testMetrics() throws Exception {
+        DigitSequenceMetrics metrics = DigitSequenceMetrics.getInstance();
+        DigitSequence twelve = DigitSequence.of("12");
+        DigitSequence three = DigitSequence.of("3");
+        DigitSequence infinite = DigitSequence.of("...12");
+        DigitSequence negativeInfinite = DigitSequence.of("-...3");
+
+        // Nothing is counted while disabled.
+        metrics.reset();
+        twelve.add(three).toString();
+        Assert.assertEquals(0, metrics.getAddCount());
+        Assert.assertEquals(0, metrics.getFormatCount());
+
+        metrics.setEnabled(true);
+        try {
+            twelve.add(three);
+            twelve.subtract(three);
+            twelve.subtract(three);
+            twelve.multiply(DigitSequence.ZERO);
+            infinite.add(negativeInfinite).toString();
+            DigitSequence.of("123");
+
+            Assert.assertEquals(2, metrics.getAddCount());
+            Assert.assertEquals(2, metrics.getSubtractCount());
+            Assert.assertEquals(1, metrics.getMultiplyCount());
+            Assert.assertEquals(1, metrics.getParseCount());
+            Assert.assertEquals(1, metrics.getFormatCount());
+            Assert.assertEquals(1, metrics.getCantTellCount());
+            // 15, 9, 9, 0, ...9 and 123.
+            Assert.assertEquals(2 + 1 + 1 + 1 + 1 + 3, metrics.getDigitsProduced());
+
+            // Two operands per operation: 1-digit ones in bucket 1, 2-digit ones in bucket 2.
+            long[] histogram = metrics.getOperandSizeHistogram();
+            Assert.assertEquals(5, histogram[1]);
+            Assert.assertEquals(5, histogram[2]);
+
+            // The same numbers are visible over JMX.
+            Object adds = ManagementFactory.getPlatformMBeanServer()
+                    .getAttribute(new ObjectName(DigitSequenceMetrics.OBJECT_NAME), "AddCount");
+            Assert.assertEquals(2L, adds);
+        } finally {
+            metrics.setEnabled(false);
+            metrics.reset();
+        }
+    }
+
+    public void testExtension() {
+        DigitSequence a = DigitSequence.of("...123");
+        DigitSequence b = DigitSequence.of("...456");
+        DigitSequence a2 = a.withKnownDigits(DigitSequence.of("...9123"));
+        DigitSequence b2 = b.withKnownDigits(DigitSequence.of("...87456"));
+
+        extensionTest(a.add(b), a2, b2, "...6579", a2.add(b2));
+        extensionTest(a.subtract(b), a2, b2, "...1667", a2.subtract(b2));
+        extensionTest(b.subtract(a), b2, a2, "...8333", b2.subtract(a2));
+        extensionTest(a.multiply(b), a2, b2, "...1088", a2.multiply(b2));
+        extensionTest(a.negate().multiply(b), a2.negate(), b2, "-...1088", a2.negate().multiply(b2));
+
+        // Operands may be given in either order, and one of them may be finite.
+        extensionTest(a.add(b), b2, a2, "...6579", a2.add(b2));
+        DigitSequence seven = DigitSequence.of("7");
+        extensionTest(seven.multiply(a), seven, a2, "...3861", seven.multiply(a2));
+
+        // Extending in steps gives the same as extending all at once.
+        DigitSequence a3 = a2.withKnownDigits(DigitSequence.of("...559123"));
+        DigitSequence b3 = b2.withKnownDigits(DigitSequence.of("...187456"));
+        DigitSequence product = a.multiply(b).extendTo(a2, b2).extendTo(a3, b3);
+        Assert.assertEquals(a3.multiply(b3).toString(), product.toString());
+        Assert.assertEquals("...961088", product.toString());
+
+        // A precision limit stops short of what the operands allow, but never drops known digits.
+        Assert.assertEquals("...746579", a.add(b).extendTo(a3, b3).toString());
+        Assert.assertEquals("...6579", a.add(b).extendTo(4, a3, b3).toString());
+        Assert.assertEquals("...579", a.add(b).extendTo(2, a3, b3).toString());
+
+        // Finite results are already complete.
+        DigitSequence sum = DigitSequence.of("12").add(DigitSequence.of("30"));
+        Assert.assertSame(sum, sum.extendTo(DigitSequence.of("12"), DigitSequence.of("30")));
+    }
+
+    public void testExtensionErrors() {
+        DigitSequence a = DigitSequence.of("...123");
+        DigitSequence b = DigitSequence.of("...456");
+        DigitSequence sum = a.add(b);
+
+        // Not an extension: a different number, or different known digits.
+        expectExtensionError(sum, DigitSequence.of("...9123"), b);
+        expectExtensionError(sum, a.withKnownDigits(DigitSequence.of("...9123")), DigitSequence.of("...7"));
+
+        // Finite operands are complete, so they can't gain digits.
+        DigitSequence a2 = a.withKnownDigits(DigitSequence.of("...9123"));
+        expectExtensionError(DigitSequence.of("7").multiply(a), DigitSequence.of("17"), a2);
+
+        // Signs have to match the original operands.
+        DigitSequence b2 = b.withKnownDigits(DigitSequence.of("...87456"));
+        expectExtensionError(sum, a2, b2.negate());
+        expectExtensionError(a.subtract(b), a2.negate(), b2);
+        try {
+            a.withKnownDigits(DigitSequence.of("...9124"));
+            Assert.fail("Expected error");
+        } catch (IllegalArgumentException e) {
+            // Expected -- do nothing.
+        }
+
+        // A literal isn't the result of anything.
+        try {
+            a.extendTo(a, b);
+            Assert.fail("Expected error");
+        } catch (IllegalStateException e) {
+            // Expected -- do nothing.
+        }
+    }
+
+    private void extensionTest(DigitSequence result, DigitSequence left, DigitSequence right,
+                               String expected, DigitSequence recomputed) {
+        DigitSequence extended = result.extendTo(left, right);
+        Assert.assertEquals(expected, extended.toString());
+        Assert.assertEquals(recomputed.toString(), extended.toString());
+    }
+
+    private void expectExtensionError(DigitSequence result, DigitSequence left, DigitSequence right) {
+        try {
+            result.extendTo(left, right);
+            Assert.fail("Expected error");
+        } catch (IllegalArgumentException e) {
+            // Expected -- do nothing.
+        }
+    }
+
     public void testDivision() {
 
     }